@@ -15,8 +15,11 @@
  */
 package com.github.jmnarloch.spring.cloud.feign;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import feign.Feign;
 import feign.codec.ErrorDecoder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -35,6 +38,25 @@ import org.springframework.context.annotation.Configuration;
 @ConditionalOnProperty(value = "feign.vnderror.enabled", matchIfMissing = true)
 public class VndErrorAutoConfiguration {
 
+    /**
+     * The optional instance of the Jackson {@link ObjectMapper}, if non has been configured a new instance
+     * will be created.
+     */
+    @Autowired(required = false)
+    private ObjectMapper objectMapper;
+
+    /**
+     * Whether to sniff the response body when the content type is missing or does not match.
+     */
+    @Value("${feign.vnderror.sniffing.enabled:false}")
+    private boolean sniffingEnabled;
+
+    /**
+     * The maximum number of bytes inspected when sniffing the response body.
+     */
+    @Value("${feign.vnderror.sniffing.limit:" + VndErrorDecoder.DEFAULT_SNIFFING_LIMIT + "}")
+    private int sniffingLimit;
+
     /**
      * Enables the custom error decoder.
      *
@@ -43,6 +65,7 @@ public class VndErrorAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(ErrorDecoder.class)
     public ErrorDecoder vndErrorDecoder() {
-        return new VndErrorDecoder();
+        final ObjectMapper mapper = objectMapper != null ? objectMapper : new ObjectMapper();
+        return new VndErrorDecoder(mapper, sniffingEnabled, sniffingLimit);
     }
 }
@@ -24,14 +24,14 @@ import feign.codec.ErrorDecoder;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.InitializingBean;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.VndErrors;
 import org.springframework.hateoas.VndErrors.VndError;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.nio.charset.Charset;
@@ -44,13 +44,19 @@ import java.util.Map;
  * responses matching the {@code application/vnd.error+json} content types and unmarshall the {@link VndErrors}
  * instance. If that fails it will make a second attempt to retrieve single {@link VndError} out of the response body.
  * Afterwards the unmarshalled error object will wrapped into {@link VndErrorException} and propagated by Feign.
+ * <p/>
+ * Optionally the decoder can sniff the response body whenever the content type is missing or does not match. In that
+ * case only a bounded prefix of the body is inspected and the full decoding is performed only if the prefix looks
+ * like a vnd.error JSON payload.
+ * <p/>
+ * The decoder holds no mutable state, so a single instance is shared by all of the Feign clients.
  *
  * @author Jakub Narloch
  * @see VndErrors
  * @see VndErrorException
  * @see <a href="https://github.com/blongden/vnd.error">https://github.com/blongden/vnd.error</a>
  */
-public class VndErrorDecoder implements ErrorDecoder, InitializingBean {
+public class VndErrorDecoder implements ErrorDecoder {
 
     /**
      * Logger instance used by this class.
@@ -68,27 +74,83 @@ public class VndErrorDecoder implements ErrorDecoder, InitializingBean {
     private static final String JSON_VND_ERROR_MEDIA_TYPE = "application/vnd.error+json";
 
     /**
-     * The optional instance of the Jackson {@link ObjectMapper}, if non has been configured a new instance
-     * will be created.
+     * The default number of bytes inspected when sniffing the response body.
+     */
+    public static final int DEFAULT_SNIFFING_LIMIT = 256;
+
+    /**
+     * The maximum allowed number of bytes inspected when sniffing the response body.
+     */
+    public static final int MAX_SNIFFING_LIMIT = 4096;
+
+    /**
+     * The vnd.error property that is expected within the sniffed body prefix. The {@code message} property is not
+     * matched, since it is also present in the generic error payloads, for instance the Spring Boot error response.
+     */
+    private static final byte[] VND_ERROR_PROPERTY = {'"', 'l', 'o', 'g', 'r', 'e', 'f', '"'};
+
+    /**
+     * The reader used for unmarshalling the {@link VndErrors}.
      */
-    @Autowired(required = false)
-    private ObjectMapper objectMapper;
+    private final ObjectReader vndErrorsReader;
 
     /**
-     * Initializes all needed properties.
+     * The reader used for unmarshalling the single {@link VndError}.
+     */
+    private final ObjectReader vndErrorReader;
+
+    /**
+     * Whether to sniff the response body when the content type does not match.
+     */
+    private final boolean sniffingEnabled;
+
+    /**
+     * The maximum number of bytes inspected when sniffing the response body.
+     */
+    private final int sniffingLimit;
+
+    /**
+     * Creates new instance of {@link VndErrorDecoder} with default {@link ObjectMapper} and body sniffing disabled.
      *
-     * @throws Exception if any error occurs
+     * @deprecated the application {@link ObjectMapper} is no longer injected into the decoder, use
+     * {@link #VndErrorDecoder(ObjectMapper)} instead
      */
-    @Override
-    public void afterPropertiesSet() throws Exception {
-        if (objectMapper == null) {
-            objectMapper = new ObjectMapper();
-        }
+    @Deprecated
+    public VndErrorDecoder() {
+        this(new ObjectMapper());
+    }
+
+    /**
+     * Creates new instance of {@link VndErrorDecoder} with body sniffing disabled.
+     *
+     * @param objectMapper the object mapper
+     */
+    public VndErrorDecoder(ObjectMapper objectMapper) {
+        this(objectMapper, false, DEFAULT_SNIFFING_LIMIT);
+    }
+
+    /**
+     * Creates new instance of {@link VndErrorDecoder}. The decoder is immutable and can be safely shared across
+     * threads.
+     *
+     * @param objectMapper    the object mapper
+     * @param sniffingEnabled whether to sniff the response body when the content type is missing or does not match
+     * @param sniffingLimit   the maximum number of bytes inspected when sniffing the response body, at most
+     *                        {@link #MAX_SNIFFING_LIMIT}
+     */
+    public VndErrorDecoder(ObjectMapper objectMapper, boolean sniffingEnabled, int sniffingLimit) {
+        Assert.notNull(objectMapper, "The object mapper can not be null");
+        Assert.isTrue(sniffingLimit > 0 && sniffingLimit <= MAX_SNIFFING_LIMIT,
+                "The sniffing limit must be between 1 and " + MAX_SNIFFING_LIMIT);
+        this.vndErrorsReader = objectMapper.reader(VndErrors.class);
+        this.vndErrorReader = objectMapper.reader(VndError.class);
+        this.sniffingEnabled = sniffingEnabled;
+        this.sniffingLimit = sniffingLimit;
     }
 
     /**
      * Decodes the JSON vnd.error out of the response payload, if case that no matching content type has been found
-     * fallbacks to the default decoder.
+     * fallbacks to the body sniffing, if enabled, or to the default decoder.
      *
      * @param methodKey the method key
      * @param response  the response object
@@ -102,6 +164,10 @@ public class VndErrorDecoder implements ErrorDecoder, InitializingBean {
                 return decodeVndError(response);
             }
 
+            if (sniffingEnabled && response.body() != null) {
+                return sniffVndError(methodKey, response);
+            }
+
             return new ErrorDecoder.Default().decode(methodKey, response);
         } catch (IOException e) {
             logger.error("An unexpected error occurred during vnd.error decoding", e);
@@ -123,38 +189,138 @@ public class VndErrorDecoder implements ErrorDecoder, InitializingBean {
     /**
      * Decodes the vnd.error out of the response body.
      *
+     * @param response the response object
      * @return the decoded exception
      * @throws IOException if any error occurs during response processing
      */
-    @SuppressWarnings("PMD.EmptyCatchBlock")
     private Exception decodeVndError(Response response) throws IOException {
 
-        VndErrors vndErrors = null;
         final byte[] body = body(response);
+        return createException(response, body, readVndErrors(body));
+    }
+
+    /**
+     * Peeks at the bounded prefix of the response body and decodes the vnd.error only if the prefix matches, otherwise
+     * fallbacks to the default decoder with the response body left intact.
+     *
+     * @param methodKey the method key
+     * @param response  the response object
+     * @return the decoded exception
+     * @throws IOException if any error occurs during response processing
+     */
+    private Exception sniffVndError(String methodKey, Response response) throws IOException {
+
+        final Response.Body responseBody = response.body();
+        final BufferedInputStream input = new BufferedInputStream(responseBody.asInputStream(), sniffingLimit);
+
+        input.mark(sniffingLimit);
+        final byte[] prefix = new byte[sniffingLimit];
+        final int length = IOUtils.read(input, prefix);
+        input.reset();
+
+        if (!isVndError(prefix, length)) {
+            return new ErrorDecoder.Default().decode(methodKey, Response.create(response.status(), response.reason(),
+                    response.headers(), input, responseBody.length()));
+        }
+
+        final byte[] body;
+        try {
+            body = IOUtils.toByteArray(input);
+        } finally {
+            responseBody.close();
+        }
 
         try {
-            vndErrors = reader(VndErrors.class).readValue(body);
+            return createException(response, body, readVndErrors(body));
         } catch (JsonProcessingException e) {
-            // ignores exception
+            logger.debug("The response body does not contain vnd.error", e);
+            return new ErrorDecoder.Default().decode(methodKey, Response.create(response.status(), response.reason(),
+                    response.headers(), body));
         }
+    }
 
-        if (vndErrors == null) {
-            final VndError vndError = reader(VndError.class).readValue(body);
-            vndErrors = new VndErrors(vndError);
+    /**
+     * Returns whether the body prefix looks like a JSON vnd.error, that is a JSON object or array containing the
+     * {@code logref} property.
+     *
+     * @param prefix the body prefix
+     * @param length the number of bytes read into the prefix
+     * @return {@code true} if prefix looks like vnd.error, {@code false} otherwise
+     */
+    private static boolean isVndError(byte[] prefix, int length) {
+
+        int index = 0;
+        while (index < length && Character.isWhitespace(prefix[index])) {
+            index++;
+        }
+        if (index == length || (prefix[index] != '{' && prefix[index] != '[')) {
+            return false;
         }
 
-        return createException(response, body, vndErrors);
+        return indexOf(prefix, index, length, VND_ERROR_PROPERTY) >= 0;
     }
 
     /**
-     * Returns the object reader for specified type.
+     * Returns the index of the first occurrence of the pattern within the specified range of the bytes.
      *
-     * @param expectedType the type to unmarshall
-     * @return the object reader for specified type
+     * @param bytes   the bytes to search
+     * @param from    the index to start the search from, inclusive
+     * @param to      the index to end the search at, exclusive
+     * @param pattern the pattern to search
+     * @return the index of the pattern, or {@code -1} if it has not been found
      */
-    private ObjectReader reader(Class<?> expectedType) {
+    private static int indexOf(byte[] bytes, int from, int to, byte[] pattern) {
+
+        for (int index = from; index <= to - pattern.length; index++) {
+            if (matches(bytes, index, pattern)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether the pattern occurs within the bytes at the specified index.
+     *
+     * @param bytes   the bytes to search
+     * @param index   the index to match at
+     * @param pattern the pattern to match
+     * @return {@code true} if pattern occurs at the index, {@code false} otherwise
+     */
+    private static boolean matches(byte[] bytes, int index, byte[] pattern) {
+
+        for (int offset = 0; offset < pattern.length; offset++) {
+            if (bytes[index + offset] != pattern[offset]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the vnd.errors out of the body, if that fails it reads a single vnd.error instead.
+     *
+     * @param body the response body
+     * @return the vnd errors
+     * @throws IOException if any error occurs during response processing
+     */
+    @SuppressWarnings("PMD.EmptyCatchBlock")
+    private VndErrors readVndErrors(byte[] body) throws IOException {
+
+        VndErrors vndErrors = null;
+
+        try {
+            vndErrors = vndErrorsReader.readValue(body);
+        } catch (JsonProcessingException e) {
+            // ignores exception
+        }
+
+        if (vndErrors == null) {
+            final VndError vndError = vndErrorReader.readValue(body);
+            vndErrors = new VndErrors(vndError);
+        }
 
-        return objectMapper.reader(expectedType);
+        return vndErrors;
     }
 
     /**
@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2015 the original author or authors
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jmnarloch.spring.cloud.feign;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Response;
+import feign.RetryableException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.VndErrors;
+
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.springframework.hateoas.VndErrors.VndError;
+
+/**
+ * Stress tests the single shared {@link VndErrorDecoder} instance decoding mixed payloads from many threads. The test
+ * verifies the correctness of the results only, it does not measure contention nor detect unsafe publication.
+ *
+ * @author Jakub Narloch
+ */
+public class VndErrorDecoderConcurrencyTest {
+
+    private static final int THREADS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    private static final int ITERATIONS = 2000;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final VndErrorDecoder decoder = new VndErrorDecoder(new ObjectMapper(), true,
+            VndErrorDecoder.DEFAULT_SNIFFING_LIMIT);
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldDecodeMixedPayloadsConcurrently() throws Exception {
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Integer>> results = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            results.add(executor.submit(new Decoding(thread, start)));
+        }
+        start.countDown();
+
+        for (Future<Integer> result : results) {
+            assertEquals(Integer.valueOf(ITERATIONS), result.get(1, TimeUnit.MINUTES));
+        }
+    }
+
+    /**
+     * Decodes a rotating set of payloads and verifies that every result matches the payload it was decoded from.
+     */
+    private class Decoding implements Callable<Integer> {
+
+        private final int thread;
+
+        private final CountDownLatch start;
+
+        Decoding(int thread, CountDownLatch start) {
+            this.thread = thread;
+            this.start = start;
+        }
+
+        @Override
+        public Integer call() throws Exception {
+
+            start.await();
+
+            final String retryAfter = retryAfter();
+            int verified = 0;
+            for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                final String logref = thread + "-" + iteration;
+                switch (iteration % 6) {
+                    case 0:
+                        verifyVndErrors(decode("application/vnd.error+json", null, vndError(logref)), logref);
+                        break;
+                    case 1:
+                        verifyVndErrors(decode("application/vnd.error+json", null,
+                                "[" + vndError(logref) + "," + vndError(logref) + "]"), logref, logref);
+                        break;
+                    case 2:
+                        verifyVndErrors(decode("application/json", null, vndError(logref)), logref);
+                        break;
+                    case 3:
+                        verifyFeignException(decode("text/plain", null, logref), FeignException.class, logref);
+                        break;
+                    case 4:
+                        verifyFeignException(decode("text/plain", retryAfter, logref), RetryableException.class,
+                                logref);
+                        break;
+                    default:
+                        verifyFeignException(decode(null, null, "{\"error\":\"" + logref + "\"}"),
+                                FeignException.class, logref);
+                        break;
+                }
+                verified++;
+            }
+            return verified;
+        }
+
+        private Exception decode(String contentType, String retryAfter, String body) {
+
+            final Map<String, Collection<String>> headers = new HashMap<>();
+            if (contentType != null) {
+                headers.put("Content-Type", Collections.singletonList(contentType));
+            }
+            if (retryAfter != null) {
+                headers.put("Retry-After", Collections.singletonList(retryAfter));
+            }
+            final Response response = Response.create(503, "Service Unavailable", headers, body.getBytes(UTF_8));
+            return decoder.decode("Client#error()", response);
+        }
+
+        private String retryAfter() {
+
+            final SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            return format.format(new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1)));
+        }
+
+        private String vndError(String logref) {
+
+            return "{\"logref\":\"" + logref + "\",\"message\":\"Error " + logref + "\"}";
+        }
+
+        private void verifyVndErrors(Exception exception, String... logrefs) {
+
+            final String reason = "vnd.errors " + Arrays.toString(logrefs);
+            assertThat(reason, exception, instanceOf(VndErrorException.class));
+            final VndErrors vndErrors = ((VndErrorException) exception).getVndErrors();
+            final Iterator<VndError> iterator = vndErrors.iterator();
+            for (String logref : logrefs) {
+                final VndError vndError = iterator.next();
+                assertEquals(reason, logref, vndError.getLogref());
+                assertEquals(reason, "Error " + logref, vndError.getMessage());
+            }
+            assertFalse(reason, iterator.hasNext());
+        }
+
+        private void verifyFeignException(Exception exception, Class<? extends FeignException> type, String logref) {
+
+            final String reason = type.getSimpleName() + " " + logref;
+            assertThat(reason, exception, instanceOf(type));
+            assertThat(reason, exception.getMessage(), containsString(logref));
+        }
+    }
+}
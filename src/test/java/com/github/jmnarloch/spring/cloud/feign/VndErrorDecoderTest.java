@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2015 the original author or authors
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jmnarloch.spring.cloud.feign;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Response;
+import org.junit.Test;
+import org.springframework.hateoas.VndErrors;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.springframework.hateoas.VndErrors.VndError;
+
+/**
+ * Tests the {@link VndErrorDecoder} response body sniffing.
+ *
+ * @author Jakub Narloch
+ */
+public class VndErrorDecoderTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int SNIFFING_LIMIT = 32;
+
+    private final VndErrorDecoder decoder = new VndErrorDecoder(new ObjectMapper(), true, SNIFFING_LIMIT);
+
+    @Test
+    public void shouldSniffVndErrorWithoutContentType() {
+
+        final Exception exception = decoder.decode("Client#error()",
+                byteResponse(null, "{\"logref\":\"1\",\"message\":\"Error\"}"));
+
+        assertVndErrors(exception, "1");
+    }
+
+    @Test
+    public void shouldSniffVndErrorFromStreamBody() {
+
+        final Exception exception = decoder.decode("Client#error()",
+                streamResponse(null, "{\"logref\":\"1\",\"message\":\"Error\"}"));
+
+        assertVndErrors(exception, "1");
+    }
+
+    @Test
+    public void shouldSniffVndErrorWithLeadingWhitespace() {
+
+        final Exception exception = decoder.decode("Client#error()",
+                streamResponse("application/json", " \r\n\t{\"logref\":\"1\",\"message\":\"Error\"}"));
+
+        assertVndErrors(exception, "1");
+    }
+
+    @Test
+    public void shouldSniffVndErrorsArray() {
+
+        final Exception exception = decoder.decode("Client#error()", streamResponse(null,
+                "[{\"logref\":\"1\",\"message\":\"First\"},{\"logref\":\"2\",\"message\":\"Second\"}]"));
+
+        assertVndErrors(exception, "1", "2");
+    }
+
+    @Test
+    public void shouldReplayFullBodyLongerThanSniffingLimit() {
+
+        final String body = "{\"error\":\"Internal Server Error\",\"details\":\"" + repeat('x', 4 * SNIFFING_LIMIT)
+                + "\",\"end\":\"tail\"}";
+
+        final Exception exception = decoder.decode("Client#error()", streamResponse("application/json", body));
+
+        assertFeignException(exception, body);
+    }
+
+    @Test
+    public void shouldIgnoreLogrefBeyondSniffingLimit() {
+
+        final String body = "{\"message\":\"" + repeat('x', SNIFFING_LIMIT) + "\",\"logref\":\"1\"}";
+
+        final Exception exception = decoder.decode("Client#error()", streamResponse(null, body));
+
+        assertFeignException(exception, body);
+    }
+
+    @Test
+    public void shouldReplayBodyWhenMatchingPrefixFailsToUnmarshall() {
+
+        final String body = "{\"logref\":\"1\",\"message\":\"Error\",\"unknown\":";
+
+        final Exception exception = decoder.decode("Client#error()", streamResponse(null, body));
+
+        assertFeignException(exception, body);
+    }
+
+    @Test
+    public void shouldReplayNonJsonBody() {
+
+        final String body = "\"logref\" plain text error";
+
+        final Exception exception = decoder.decode("Client#error()", byteResponse("text/plain", body));
+
+        assertFeignException(exception, body);
+    }
+
+    @Test
+    public void shouldNotSniffWhenDisabled() {
+
+        final String body = "{\"logref\":\"1\",\"message\":\"Error\"}";
+
+        final Exception exception = new VndErrorDecoder(new ObjectMapper())
+                .decode("Client#error()", byteResponse(null, body));
+
+        assertFeignException(exception, body);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectSniffingLimitAboveMaximum() {
+
+        new VndErrorDecoder(new ObjectMapper(), true, VndErrorDecoder.MAX_SNIFFING_LIMIT + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveSniffingLimit() {
+
+        new VndErrorDecoder(new ObjectMapper(), true, 0);
+    }
+
+    private static Response byteResponse(String contentType, String body) {
+
+        return Response.create(500, "Internal Server Error", headers(contentType), body.getBytes(UTF_8));
+    }
+
+    private static Response streamResponse(String contentType, String body) {
+
+        final byte[] bytes = body.getBytes(UTF_8);
+        return Response.create(500, "Internal Server Error", headers(contentType), new ByteArrayInputStream(bytes),
+                bytes.length);
+    }
+
+    private static Map<String, Collection<String>> headers(String contentType) {
+
+        final Map<String, Collection<String>> headers = new HashMap<>();
+        if (contentType != null) {
+            headers.put("Content-Type", Collections.singletonList(contentType));
+        }
+        return headers;
+    }
+
+    private static String repeat(char c, int count) {
+
+        final StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    private static void assertVndErrors(Exception exception, String... logrefs) {
+
+        assertThat(exception, instanceOf(VndErrorException.class));
+        final VndErrors vndErrors = ((VndErrorException) exception).getVndErrors();
+        final Iterator<VndError> iterator = vndErrors.iterator();
+        for (String logref : logrefs) {
+            assertEquals(logref, iterator.next().getLogref());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    private static void assertFeignException(Exception exception, String body) {
+
+        assertThat(exception, instanceOf(FeignException.class));
+        assertThat(exception.getMessage(), containsString(body));
+    }
+}